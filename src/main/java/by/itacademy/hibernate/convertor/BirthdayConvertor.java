@@ -5,24 +5,17 @@ import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
 
 import java.sql.Date;
-import java.util.Optional;
 
 @Converter(autoApply = true)
 public class BirthdayConvertor implements AttributeConverter<Birthday, Date> {
 
     @Override
     public Date convertToDatabaseColumn(Birthday birthday) {
-        return Optional.ofNullable(birthday)
-                .map(Birthday::birthDate)
-                .map(Date::valueOf)
-                .orElse(null);
+        return birthday == null || birthday.birthDate() == null ? null : Date.valueOf(birthday.birthDate());
     }
 
     @Override
     public Birthday convertToEntityAttribute(Date date) {
-        return Optional.ofNullable(date)
-                .map(Date::toLocalDate)
-                .map(Birthday::new)
-                .orElse(null);
+        return date == null ? null : new Birthday(date.toLocalDate());
     }
 }
@@ -1,13 +1,18 @@
 package by.itacademy.hibernate.dao;
 
 
+import by.itacademy.hibernate.entity.Birthday;
 import by.itacademy.hibernate.entity.Payment;
 import by.itacademy.hibernate.entity.User;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.hibernate.Session;
+import org.hibernate.query.Query;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class UserDao {
@@ -26,14 +31,106 @@ public class UserDao {
      * Возвращает всех сотрудников с указанным именем
      */
     public List<User> findAllByFirstName(Session session, String firstName) {
-        String pattern = firstName + "%";
         return session.createQuery("""
-                        FROM User u WHERE u.username LIKE :pattern
+                        FROM User u WHERE u.personalInfo.firstname = :firstName
                         """, User.class)
-                .setParameter("pattern", pattern)
+                .setParameter("firstName", firstName)
                 .list();
     }
 
+    /**
+     * Возвращает первых {limit} сотрудников, у которых значение поля начинается с {prefix} без учёта регистра,
+     * упорядоченных по этому полю в нижнем регистре (на PostgreSQL - побайтово, как в индексе, чтобы выборка
+     * первых {limit} строк шла по индексу без сортировки)
+     */
+    public List<User> findAllByPrefixIgnoreCase(Session session, UserSearchField field, String prefix, int limit) {
+        return session.createQuery("""
+                        FROM User u
+                        WHERE ci_key(%1$s) LIKE :pattern ESCAPE '\\'
+                        ORDER BY ci_key(%1$s)
+                        """.formatted(field.getPath()), User.class)
+                .setParameter("pattern", escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%")
+                .setMaxResults(limit)
+                .list();
+    }
+
+    /**
+     * Возвращает всех сотрудников, у которых значение поля совпадает с {value} без учёта регистра
+     */
+    public List<User> findAllIgnoreCase(Session session, UserSearchField field, String value) {
+        return session.createQuery("""
+                        FROM User u
+                        WHERE ci_key(%s) = :value
+                        """.formatted(field.getPath()), User.class)
+                .setParameter("value", value.toLowerCase(Locale.ROOT))
+                .list();
+    }
+
+    /**
+     * Возвращает всех сотрудников, чей возраст на сегодня в диапазоне [minAge, maxAge] полных лет
+     */
+    public List<User> findAllByAgeBetween(Session session, int minAge, int maxAge) {
+        return findAllByAgeBetween(session, minAge, maxAge, LocalDate.now());
+    }
+
+    /**
+     * Возвращает всех сотрудников, чей возраст на дату {today} в диапазоне [minAge, maxAge] полных лет.
+     * Возраст переводится в диапазон дат рождения, чтобы фильтрация шла по индексу birth_date.
+     * Возраст считается как в {@link Birthday#getAge()}: на дату t исполнилось age лет,
+     * если дата рождения не позже t.minusYears(age), поэтому родившимся 29 февраля
+     * в невисокосный год следующий год засчитывается 1 марта
+     */
+    public List<User> findAllByAgeBetween(Session session, int minAge, int maxAge, LocalDate today) {
+        return session.createQuery("""
+                        FROM User u
+                        WHERE u.personalInfo.birthDate > :bornAfter AND u.personalInfo.birthDate <= :bornBefore
+                        """, User.class)
+                .setParameter("bornAfter", new Birthday(today.minusYears(maxAge + 1L)))
+                .setParameter("bornBefore", new Birthday(today.minusYears(minAge)))
+                .list();
+    }
+
+    /**
+     * Возвращает всех сотрудников, у которых день рождения в ближайшие {days} дней, включая сегодня
+     */
+    public List<User> findAllWithBirthdayWithinDays(Session session, int days) {
+        return findAllWithBirthdayWithinDays(session, days, LocalDate.now());
+    }
+
+    /**
+     * Возвращает всех сотрудников, у которых день рождения в период [today, today + days].
+     * День рождения - день, в который возраст увеличивается по тому же правилу, что и в
+     * {@link #findAllByAgeBetween(Session, int, int, LocalDate)}: у родившихся 29 февраля
+     * в невисокосный год это 1 марта. Для каждого возможного возраста age подходят даты рождения
+     * из (today - 1 день - age лет, today + days - age лет], и эти диапазоны объединяются через OR
+     * по индексу birth_date
+     */
+    public List<User> findAllWithBirthdayWithinDays(Session session, int days, LocalDate today) {
+        Object[] bounds = session.createQuery("""
+                        SELECT MIN(u.personalInfo.birthDate), MAX(u.personalInfo.birthDate)
+                        FROM User u
+                        """, Object[].class)
+                .getSingleResult();
+        if (bounds[0] == null) {
+            return List.of();
+        }
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate end = today.plusDays(days);
+        int minAge = Math.max(0, yesterday.getYear() - ((Birthday) bounds[1]).birthDate().getYear() - 1);
+        int maxAge = end.getYear() - ((Birthday) bounds[0]).birthDate().getYear();
+
+        StringJoiner ranges = new StringJoiner(" OR ");
+        for (int age = minAge; age <= maxAge; age++) {
+            ranges.add("(u.personalInfo.birthDate > :after" + age + " AND u.personalInfo.birthDate <= :to" + age + ")");
+        }
+        Query<User> query = session.createQuery("FROM User u WHERE " + ranges, User.class);
+        for (int age = minAge; age <= maxAge; age++) {
+            query.setParameter("after" + age, new Birthday(yesterday.minusYears(age)));
+            query.setParameter("to" + age, new Birthday(end.minusYears(age)));
+        }
+        return query.list();
+    }
+
     /**
      * Возвращает первые {limit} сотрудников, упорядоченных по дате рождения (в порядке возрастания)
      */
@@ -120,4 +217,10 @@ public class UserDao {
     public static UserDao getInstance() {
         return INSTANCE;
     }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package by.itacademy.hibernate.dao;
+
+import by.itacademy.hibernate.entity.User;
+import lombok.Cleanup;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Отсортированный индекс значений поля сотрудника в памяти для автодополнения по префиксу без учёта регистра.
+ * Обновляется после коммита транзакций, изменяющих User; массовые HQL update/delete его не обновляют.
+ */
+public class UserPrefixIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final UserSearchField field;
+    private final ConcurrentNavigableMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+    /**
+     * Id сотрудников, изменённых во время начальной загрузки: их строки из снимка могут быть устаревшими
+     */
+    private volatile Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    private UserPrefixIndex(UserSearchField field) {
+        this.field = field;
+    }
+
+    /**
+     * Строит индекс по всем сотрудникам и подписывает его на изменения User в указанной SessionFactory
+     */
+    public static UserPrefixIndex attach(SessionFactory sessionFactory, UserSearchField field) {
+        UserPrefixIndex index = new UserPrefixIndex(field);
+
+        EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, index);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, index);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, index);
+
+        @Cleanup Session session = sessionFactory.openSession();
+        index.load(session);
+        return index;
+    }
+
+    /**
+     * Возвращает первые {limit} значений, начинающихся с {prefix} без учёта регистра, упорядоченные по значению
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+        for (Map.Entry<String, Suggestion> entry : entries.tailMap(normalizedPrefix).entrySet()) {
+            if (suggestions.size() >= limit || !entry.getKey().startsWith(normalizedPrefix)) {
+                break;
+            }
+            suggestions.add(entry.getValue());
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User user) {
+            markChanged(user.getId());
+            put(user.getId(), field.getExtractor().apply(user));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            markChanged(user.getId());
+            put(user.getId(), field.getExtractor().apply(user));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User) {
+            markChanged((Long) event.getId());
+            remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return User.class.equals(persister.getMappedClass());
+    }
+
+    private void load(Session session) {
+        List<Object[]> rows = session.createQuery("""
+                        SELECT u.id, %s
+                        FROM User u
+                        """.formatted(field.getPath()), Object[].class)
+                .list();
+        for (Object[] row : rows) {
+            putLoaded((Long) row[0], (String) row[1]);
+        }
+        changedDuringLoad = null;
+    }
+
+    private synchronized void putLoaded(Long id, String value) {
+        if (!changedDuringLoad.contains(id)) {
+            put(id, value);
+        }
+    }
+
+    private void markChanged(Long id) {
+        Set<Long> changed = changedDuringLoad;
+        if (changed != null) {
+            changed.add(id);
+        }
+    }
+
+    private synchronized void put(Long id, String value) {
+        remove(id);
+        if (value != null) {
+            String key = normalize(value) + KEY_SEPARATOR + id;
+            entries.put(key, new Suggestion(id, value));
+            keysById.put(id, key);
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        String key = keysById.remove(id);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    public record Suggestion(Long id, String value) {
+    }
+}
@@ -0,0 +1,23 @@
+package by.itacademy.hibernate.dao;
+
+import by.itacademy.hibernate.entity.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+/**
+ * Поля сотрудника, по которым возможен поиск по префиксу без учёта регистра
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UserSearchField {
+    USERNAME("u.username", User::getUsername),
+    FIRSTNAME("u.personalInfo.firstname",
+            user -> user.getPersonalInfo() == null ? null : user.getPersonalInfo().getFirstname()),
+    LASTNAME("u.personalInfo.lastname",
+            user -> user.getPersonalInfo() == null ? null : user.getPersonalInfo().getLastname());
+
+    private final String path;
+    private final Function<User, String> extractor;
+}
@@ -13,7 +13,11 @@ import java.util.List;
 @ToString(exclude = {"company", "profile", "userChats", "payments"})
 @Builder
 @Entity
-@Table(name = "users", schema = "public")
+@Table(name = "users", schema = "public", indexes = {
+        @Index(name = "users_firstname_idx", columnList = "firstname"),
+        @Index(name = "users_lastname_idx", columnList = "lastname"),
+        @Index(name = "users_birth_date_idx", columnList = "birth_date")
+})
 public class User implements Comparable<User>, BaseEntity<Long> {
 
     @Id
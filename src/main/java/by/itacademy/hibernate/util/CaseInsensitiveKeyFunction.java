@@ -0,0 +1,43 @@
+package by.itacademy.hibernate.util;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+
+import java.util.List;
+
+/**
+ * HQL-функция {@value #NAME}(value): ключ поиска без учёта регистра. На PostgreSQL раскрывается в то же
+ * выражение, что и {@link CaseInsensitivePrefixIndex}, чтобы индекс обслуживал и LIKE по префиксу, и ORDER BY
+ */
+public class CaseInsensitiveKeyFunction implements SQLFunction {
+
+    public static final String NAME = "ci_key";
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Type getReturnType(Type firstArgumentType, Mapping mapping) {
+        return StandardBasicTypes.STRING;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public String render(Type firstArgumentType, List arguments, SessionFactoryImplementor factory) {
+        String argument = (String) arguments.get(0);
+        return factory.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect
+                ? CaseInsensitivePrefixIndex.keyExpression(argument)
+                : "lower(" + argument + ")";
+    }
+}
@@ -0,0 +1,50 @@
+package by.itacademy.hibernate.util;
+
+import org.hibernate.boot.model.relational.AbstractAuxiliaryDatabaseObject;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+
+import javax.persistence.Table;
+
+/**
+ * Индекс по lower(column) в collation "C" для поиска по префиксу без учёта регистра: такой индекс
+ * обслуживает и LIKE 'prefix%', и ORDER BY по тому же выражению (см. {@link CaseInsensitiveKeyFunction}).
+ * Через {@link javax.persistence.Index} такой индекс не объявить, поэтому он создаётся только для PostgreSQL.
+ */
+public class CaseInsensitivePrefixIndex extends AbstractAuxiliaryDatabaseObject {
+
+    private final String name;
+    private final String table;
+    private final String column;
+
+    /**
+     * Таблица берётся из {@link Table} сущности
+     */
+    public CaseInsensitivePrefixIndex(Class<?> entityClass, String column) {
+        Table annotation = entityClass.getAnnotation(Table.class);
+        this.table = annotation.schema().isEmpty() ? annotation.name() : annotation.schema() + "." + annotation.name();
+        this.name = annotation.name() + "_" + column + "_lower_idx";
+        this.column = column;
+    }
+
+    @Override
+    public boolean appliesToDialect(Dialect dialect) {
+        return dialect instanceof PostgreSQL81Dialect;
+    }
+
+    @Override
+    public String[] sqlCreateStrings(Dialect dialect) {
+        return new String[]{
+                "CREATE INDEX " + name + " ON " + table + " (" + keyExpression(column) + ")"
+        };
+    }
+
+    static String keyExpression(String operand) {
+        return "(lower(" + operand + ") COLLATE \"C\")";
+    }
+
+    @Override
+    public String[] sqlDropStrings(Dialect dialect) {
+        return new String[]{"DROP INDEX IF EXISTS " + name};
+    }
+}
@@ -0,0 +1,33 @@
+package by.itacademy.hibernate.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+/**
+ * Признак read-only единицы работы для {@link RoutingConnectionProvider}.
+ * Сессия должна открываться и начинать транзакцию внутри {@link #readOnly(Supplier)},
+ * т.к. соединение берётся из пула в момент начала транзакции.
+ */
+@UtilityClass
+public class DataSourceRouting {
+
+    private final ThreadLocal<Boolean> READ_ONLY = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Выполняет работу так, что все соединения, полученные в её рамках, берутся с реплик
+     */
+    public <T> T readOnly(Supplier<T> work) {
+        boolean previous = READ_ONLY.get();
+        READ_ONLY.set(true);
+        try {
+            return work.get();
+        } finally {
+            READ_ONLY.set(previous);
+        }
+    }
+
+    public boolean isReadOnly() {
+        return READ_ONLY.get();
+    }
+}
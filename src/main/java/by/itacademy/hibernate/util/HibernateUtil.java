@@ -1,18 +1,37 @@
 package by.itacademy.hibernate.util;
 
 import by.itacademy.hibernate.convertor.BirthdayConvertor;
+import by.itacademy.hibernate.entity.User;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
 import org.hibernate.cfg.Configuration;
 
+import java.util.List;
+import java.util.Properties;
+
 public class HibernateUtil {
+
+    private static final List<String> CASE_INSENSITIVE_USER_COLUMNS = List.of("username", "firstname", "lastname");
+
     public static SessionFactory buildSessionFactory() {
+        return buildSessionFactory(new Properties());
+    }
+
+    /**
+     * Собирает SessionFactory из hibernate.cfg.xml, переопределяя в нём указанные свойства
+     */
+    public static SessionFactory buildSessionFactory(Properties properties) {
         Configuration configuration = new Configuration().configure();
         configuration.configure();
+        configuration.addProperties(properties);
         configuration.addAttributeConverter(new BirthdayConvertor());
 //        configuration.registerTypeOverride(new JsonBinaryType());
 //        configuration.addAnnotatedClass(User.class);
         configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+        configuration.addSqlFunction(CaseInsensitiveKeyFunction.NAME, new CaseInsensitiveKeyFunction());
+        for (String column : CASE_INSENSITIVE_USER_COLUMNS) {
+            configuration.addAuxiliaryDatabaseObject(new CaseInsensitivePrefixIndex(User.class, column));
+        }
         return configuration.buildSessionFactory();
     }
 }
@@ -0,0 +1,6 @@
+package by.itacademy.hibernate.util;
+
+public enum ReplicaSelectionStrategy {
+    ROUND_ROBIN,
+    LEAST_LOADED
+}
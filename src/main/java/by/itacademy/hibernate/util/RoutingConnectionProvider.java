@@ -0,0 +1,318 @@
+package by.itacademy.hibernate.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.JDBCException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул соединений, направляющий read-only единицы работы ({@link DataSourceRouting#readOnly})
+ * на реплики, а все остальные - на primary ({@code hibernate.connection.url}).
+ * Недоступная реплика или реплика, отстающая больше чем на {@link #REPLICA_MAX_LAG} секунд,
+ * из выбора исключается; доступность и отставание проверяются в фоновом потоке
+ * раз в {@link #REPLICA_LAG_CHECK_INTERVAL} мс, и восстановившаяся реплика возвращается в выбор.
+ * Если подходящих реплик нет, чтение идёт на primary.
+ */
+@Slf4j
+public class RoutingConnectionProvider implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+
+    /**
+     * URL реплик через запятую, логин и пароль берутся от primary.
+     * Настройки реплик лежат вне hibernate.connection.*, иначе Hibernate передаст их JDBC-драйверу
+     */
+    public static final String REPLICA_URLS = "hibernate.replica.urls";
+    public static final String REPLICA_STRATEGY = "hibernate.replica.strategy";
+    /**
+     * Допустимое отставание реплики в секундах, 0 - отставание не проверяется
+     */
+    public static final String REPLICA_MAX_LAG = "hibernate.replica.max_lag";
+    public static final String REPLICA_LAG_QUERY = "hibernate.replica.lag_query";
+    /**
+     * Как часто (в миллисекундах) перепроверять доступность и отставание реплик;
+     * это же время недоступная реплика пропускается, прежде чем к ней попробуют подключиться снова
+     */
+    public static final String REPLICA_LAG_CHECK_INTERVAL = "hibernate.replica.lag_check_interval";
+
+    /**
+     * Время с последней применённой транзакции растёт и при простое primary,
+     * поэтому реплика, которая получает WAL по streaming-репликации и применила всё полученное,
+     * считается не отстающей. Без активного WAL receiver реплика могла давно отключиться от primary,
+     * и для неё возвращается время с последней применённой транзакции
+     */
+    private static final String DEFAULT_LAG_QUERY = """
+            SELECT CASE
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                            AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+    private static final long DEFAULT_LAG_CHECK_INTERVAL = 1000L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Map<Connection, Lease> leasedConnections = new ConcurrentHashMap<>();
+    private final AtomicInteger roundRobinCounter = new AtomicInteger();
+
+    private ServiceRegistryImplementor serviceRegistry;
+    private DriverManagerConnectionProviderImpl primary;
+    private ReplicaSelectionStrategy strategy;
+    private double maxLag;
+    private String lagQuery;
+    private long lagCheckInterval;
+    private ScheduledExecutorService healthChecker;
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void configure(Map configurationValues) {
+        primary = createPool(configurationValues);
+
+        strategy = ReplicaSelectionStrategy.valueOf(ConfigurationHelper.getString(
+                REPLICA_STRATEGY, configurationValues, ReplicaSelectionStrategy.ROUND_ROBIN.name()).toUpperCase(Locale.ROOT));
+        maxLag = Double.parseDouble(ConfigurationHelper.getString(REPLICA_MAX_LAG, configurationValues, "0"));
+        lagQuery = ConfigurationHelper.getString(REPLICA_LAG_QUERY, configurationValues, DEFAULT_LAG_QUERY);
+        lagCheckInterval = Long.parseLong(ConfigurationHelper.getString(
+                REPLICA_LAG_CHECK_INTERVAL, configurationValues, String.valueOf(DEFAULT_LAG_CHECK_INTERVAL)));
+
+        String urls = ConfigurationHelper.getString(REPLICA_URLS, configurationValues, "");
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                Map replicaValues = new HashMap(configurationValues);
+                replicaValues.put(AvailableSettings.URL, url.trim());
+                replicas.add(new Replica(url.trim(), replicaValues));
+            }
+        }
+
+        if (!replicas.isEmpty()) {
+            if (maxLag > 0) {
+                checkReplicas();
+            }
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, lagCheckInterval, lagCheckInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceRouting.isReadOnly()) {
+            Replica replica = selectReplica();
+            if (replica != null) {
+                try {
+                    DriverManagerConnectionProviderImpl pool = replica.getPool();
+                    Connection connection = pool.getConnection();
+                    replica.getActiveConnections().incrementAndGet();
+                    leasedConnections.put(connection, new Lease(replica, pool));
+                    return connection;
+                } catch (SQLException | JDBCException e) {
+                    log.warn("Replica {} is unavailable, falling back to primary", replica.getUrl(), e);
+                    replica.markUnavailable();
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        Lease lease = leasedConnections.remove(connection);
+        if (lease == null) {
+            primary.closeConnection(connection);
+        } else {
+            lease.replica().getActiveConnections().decrementAndGet();
+            lease.replica().release(lease.pool(), connection);
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+               || RoutingConnectionProvider.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (isUnwrappableAs(unwrapType)) {
+            return (T) this;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        replicas.forEach(Replica::stop);
+        replicas.clear();
+        primary.stop();
+    }
+
+    private Replica selectReplica() {
+        List<Replica> candidates = replicas.stream()
+                .filter(Replica::isInSync)
+                .toList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> candidates.get(Math.floorMod(roundRobinCounter.getAndIncrement(), candidates.size()));
+            case LEAST_LOADED -> candidates.stream()
+                    .min(Comparator.comparingInt(replica -> replica.getActiveConnections().get()))
+                    .orElseThrow();
+        };
+    }
+
+    List<String> getAvailableReplicaUrls() {
+        return replicas.stream()
+                .filter(Replica::isInSync)
+                .map(Replica::getUrl)
+                .toList();
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try {
+                replica.setInSync(probe(replica));
+            } catch (SQLException | JDBCException e) {
+                log.warn("Replica {} is unavailable", replica.getUrl(), e);
+                replica.markUnavailable();
+            }
+        }
+    }
+
+    /**
+     * Возвращает, укладывается ли реплика в допустимое отставание; если реплика недоступна, бросает исключение
+     */
+    private boolean probe(Replica replica) throws SQLException {
+        DriverManagerConnectionProviderImpl pool = replica.getPool();
+        Connection connection = pool.getConnection();
+        try {
+            if (maxLag <= 0) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection to replica " + replica.getUrl() + " is not valid");
+                }
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                double lag = resultSet.next() ? resultSet.getDouble(1) : 0;
+                return lag <= maxLag;
+            } finally {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+            }
+        } finally {
+            replica.release(pool, connection);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private DriverManagerConnectionProviderImpl createPool(Map configurationValues) {
+        DriverManagerConnectionProviderImpl pool = new DriverManagerConnectionProviderImpl();
+        pool.injectServices(serviceRegistry);
+        pool.configure(configurationValues);
+        return pool;
+    }
+
+    private record Lease(Replica replica, DriverManagerConnectionProviderImpl pool) {
+    }
+
+    /**
+     * Пул реплики создаётся при первом обращении, чтобы недоступная при старте реплика
+     * не мешала созданию SessionFactory, и закрывается, когда реплика становится недоступной,
+     * чтобы после её восстановления не выдавать разорванные соединения
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private class Replica {
+        private final String url;
+        @Getter(AccessLevel.NONE)
+        @SuppressWarnings("rawtypes")
+        private final Map configurationValues;
+        private final AtomicInteger activeConnections = new AtomicInteger();
+        @Getter(AccessLevel.NONE)
+        private volatile DriverManagerConnectionProviderImpl pool;
+        @Setter
+        private volatile boolean inSync = true;
+
+        public DriverManagerConnectionProviderImpl getPool() {
+            DriverManagerConnectionProviderImpl result = pool;
+            if (result == null) {
+                synchronized (this) {
+                    result = pool;
+                    if (result == null) {
+                        result = createPool(configurationValues);
+                        pool = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        public void markUnavailable() {
+            inSync = false;
+            stop();
+        }
+
+        /**
+         * Возвращает соединение в пул, из которого оно было взято; если этот пул уже закрыт, закрывает соединение
+         */
+        public synchronized void release(DriverManagerConnectionProviderImpl leasedFrom, Connection connection) throws SQLException {
+            if (leasedFrom == pool) {
+                leasedFrom.closeConnection(connection);
+            } else {
+                connection.close();
+            }
+        }
+
+        public synchronized void stop() {
+            if (pool != null) {
+                pool.stop();
+                pool = null;
+            }
+        }
+    }
+}
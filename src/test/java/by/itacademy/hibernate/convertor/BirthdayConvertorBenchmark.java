@@ -0,0 +1,84 @@
+package by.itacademy.hibernate.convertor;
+
+import by.itacademy.hibernate.entity.Birthday;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение {@link BirthdayConvertor} с прежней реализацией на цепочках Optional.
+ * Запуск: main из IDE или {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=by.itacademy.hibernate.convertor.BirthdayConvertorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BirthdayConvertorBenchmark {
+
+    private final BirthdayConvertor convertor = new BirthdayConvertor();
+    private final OptionalBirthdayConvertor optionalConvertor = new OptionalBirthdayConvertor();
+    private final Birthday birthday = new Birthday(LocalDate.of(1955, 10, 28));
+    private final Date date = Date.valueOf(LocalDate.of(1955, 10, 28));
+
+    @Benchmark
+    public Date toDatabaseColumn() {
+        return convertor.convertToDatabaseColumn(birthday);
+    }
+
+    @Benchmark
+    public Date toDatabaseColumnWithOptional() {
+        return optionalConvertor.convertToDatabaseColumn(birthday);
+    }
+
+    @Benchmark
+    public Birthday toEntityAttribute() {
+        return convertor.convertToEntityAttribute(date);
+    }
+
+    @Benchmark
+    public Birthday toEntityAttributeWithOptional() {
+        return optionalConvertor.convertToEntityAttribute(date);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BirthdayConvertorBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+                .run();
+    }
+
+    private static class OptionalBirthdayConvertor {
+
+        public Date convertToDatabaseColumn(Birthday birthday) {
+            return Optional.ofNullable(birthday)
+                    .map(Birthday::birthDate)
+                    .map(Date::valueOf)
+                    .orElse(null);
+        }
+
+        public Birthday convertToEntityAttribute(Date date) {
+            return Optional.ofNullable(date)
+                    .map(Date::toLocalDate)
+                    .map(Birthday::new)
+                    .orElse(null);
+        }
+    }
+}
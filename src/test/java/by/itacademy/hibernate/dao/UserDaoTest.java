@@ -2,7 +2,9 @@ package by.itacademy.hibernate.dao;
 
 
 import by.itacademy.hibernate.utils.TestDataImporter;
+import by.itacademy.hibernate.entity.Birthday;
 import by.itacademy.hibernate.entity.Payment;
+import by.itacademy.hibernate.entity.PersonalInfo;
 import by.itacademy.hibernate.entity.User;
 import by.itacademy.hibernate.util.HibernateUtil;
 import lombok.Cleanup;
@@ -13,6 +15,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.time.LocalDate;
+import java.time.Month;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
@@ -62,6 +66,114 @@ class UserDaoTest {
         session.getTransaction().commit();
     }
 
+    @Test
+    void findAllByPrefixIgnoreCase() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        List<User> results = userDao.findAllByPrefixIgnoreCase(session, UserSearchField.LASTNAME, "g", 10);
+
+        List<String> fullNames = results.stream().map(User::fullName).collect(toList());
+        assertThat(fullNames).containsExactly("Bill Gates", "Diane Greene");
+
+        session.getTransaction().commit();
+    }
+
+    @Test
+    void findAllByPrefixIgnoreCaseEscapesWildcards() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        List<User> results = userDao.findAllByPrefixIgnoreCase(session, UserSearchField.USERNAME, "%", 10);
+        assertThat(results).isEmpty();
+
+        session.getTransaction().commit();
+    }
+
+    @Test
+    void findAllIgnoreCase() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        List<User> results = userDao.findAllIgnoreCase(session, UserSearchField.USERNAME, "STEVEJOBS");
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).fullName()).isEqualTo("Steve Jobs");
+
+        session.getTransaction().commit();
+    }
+
+    @Test
+    void findAllByAgeBetween() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        List<User> results = userDao.findAllByAgeBetween(session, 60, 67, LocalDate.of(2023, Month.JANUARY, 1));
+
+        List<String> fullNames = results.stream().map(User::fullName).collect(toList());
+        assertThat(fullNames).containsExactlyInAnyOrder("Bill Gates", "Steve Jobs", "Tim Cook");
+
+        session.getTransaction().commit();
+    }
+
+    @Test
+    void findAllWithBirthdayWithinDays() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        List<User> results = userDao.findAllWithBirthdayWithinDays(session, 10, LocalDate.of(2023, Month.OCTOBER, 20));
+        assertThat(results.stream().map(User::fullName).collect(toList())).containsExactly("Bill Gates");
+
+        results = userDao.findAllWithBirthdayWithinDays(session, 10, LocalDate.of(2023, Month.DECEMBER, 25));
+        assertThat(results.stream().map(User::fullName).collect(toList())).containsExactly("Diane Greene");
+
+        session.getTransaction().commit();
+    }
+
+    @Test
+    void findAllByAgeBetweenAroundLeapDay() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+        saveUser(session, "Leap", "Day", LocalDate.of(2000, Month.FEBRUARY, 29));
+
+        LocalDate lastOfFebruary = LocalDate.of(2001, Month.FEBRUARY, 28);
+        assertThat(userDao.findAllByAgeBetween(session, 1, 1, lastOfFebruary)).isEmpty();
+        assertThat(userDao.findAllByAgeBetween(session, 0, 0, lastOfFebruary).stream().map(User::fullName).collect(toList()))
+                .containsExactly("Leap Day");
+        assertThat(userDao.findAllWithBirthdayWithinDays(session, 0, lastOfFebruary)).isEmpty();
+
+        LocalDate firstOfMarch = LocalDate.of(2001, Month.MARCH, 1);
+        assertThat(userDao.findAllByAgeBetween(session, 1, 1, firstOfMarch).stream().map(User::fullName).collect(toList()))
+                .containsExactly("Leap Day");
+        assertThat(userDao.findAllWithBirthdayWithinDays(session, 0, firstOfMarch).stream().map(User::fullName).collect(toList()))
+                .containsExactly("Leap Day");
+
+        session.getTransaction().rollback();
+    }
+
+    @Test
+    void findAllWithBirthdayWithinDaysAroundLeapDay() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+        saveUser(session, "Leap", "Day", LocalDate.of(1996, Month.FEBRUARY, 29));
+        saveUser(session, "February", "End", LocalDate.of(1957, Month.FEBRUARY, 28));
+
+        List<User> results = userDao.findAllWithBirthdayWithinDays(session, 24, LocalDate.of(2023, Month.FEBRUARY, 4));
+        assertThat(results.stream().map(User::fullName).collect(toList()))
+                .containsExactlyInAnyOrder("Steve Jobs", "February End");
+
+        results = userDao.findAllWithBirthdayWithinDays(session, 0, LocalDate.of(2023, Month.MARCH, 1));
+        assertThat(results.stream().map(User::fullName).collect(toList())).containsExactly("Leap Day");
+
+        results = userDao.findAllWithBirthdayWithinDays(session, 0, LocalDate.of(2024, Month.FEBRUARY, 29));
+        assertThat(results.stream().map(User::fullName).collect(toList())).containsExactly("Leap Day");
+
+        results = userDao.findAllWithBirthdayWithinDays(session, 0, LocalDate.of(2024, Month.FEBRUARY, 28));
+        assertThat(results.stream().map(User::fullName).collect(toList())).containsExactly("February End");
+
+        session.getTransaction().rollback();
+    }
+
     @Test
     void findLimitedUsersOrderedByBirthday() {
         @Cleanup Session session = sessionFactory.openSession();
@@ -149,4 +261,15 @@ class UserDaoTest {
 
         session.getTransaction().commit();
     }
+
+    private void saveUser(Session session, String firstName, String lastName, LocalDate birthday) {
+        session.save(User.builder()
+                .username(firstName + lastName)
+                .personalInfo(PersonalInfo.builder()
+                        .firstname(firstName)
+                        .lastname(lastName)
+                        .birthDate(new Birthday(birthday))
+                        .build())
+                .build());
+    }
 }
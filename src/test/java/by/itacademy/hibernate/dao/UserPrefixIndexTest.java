@@ -0,0 +1,83 @@
+package by.itacademy.hibernate.dao;
+
+import by.itacademy.hibernate.dao.UserPrefixIndex.Suggestion;
+import by.itacademy.hibernate.entity.PersonalInfo;
+import by.itacademy.hibernate.entity.User;
+import by.itacademy.hibernate.util.HibernateUtil;
+import by.itacademy.hibernate.utils.EmbeddedDatabase;
+import by.itacademy.hibernate.utils.TestDataImporter;
+import lombok.Cleanup;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class UserPrefixIndexTest {
+
+    private final SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(
+            EmbeddedDatabase.properties("jdbc:h2:mem:prefix_index;DB_CLOSE_DELAY=-1", "create"));
+    private UserPrefixIndex firstNameIndex;
+
+    @BeforeAll
+    public void initDb() {
+        TestDataImporter.importData(sessionFactory);
+        firstNameIndex = UserPrefixIndex.attach(sessionFactory, UserSearchField.FIRSTNAME);
+    }
+
+    @AfterAll
+    public void finish() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void completeIgnoresCase() {
+        assertThat(values(firstNameIndex.complete("s", 10))).containsExactly("Sergey", "Steve");
+        assertThat(values(firstNameIndex.complete("STE", 10))).containsExactly("Steve");
+        assertThat(firstNameIndex.complete("x", 10)).isEmpty();
+    }
+
+    @Test
+    void completeRespectsLimit() {
+        assertThat(values(firstNameIndex.complete("", 2))).containsExactly("Bill", "Diane");
+    }
+
+    @Test
+    void indexFollowsCommittedWrites() {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+        User user = User.builder()
+                .username("TinaTurner")
+                .personalInfo(PersonalInfo.builder()
+                        .firstname("Tina")
+                        .build())
+                .build();
+        session.save(user);
+        assertThat(values(firstNameIndex.complete("ti", 10))).containsExactly("Tim");
+        session.getTransaction().commit();
+        assertThat(values(firstNameIndex.complete("ti", 10))).containsExactly("Tim", "Tina");
+
+        session.beginTransaction();
+        user.getPersonalInfo().setFirstname("Tanya");
+        session.getTransaction().commit();
+        assertThat(values(firstNameIndex.complete("ti", 10))).containsExactly("Tim");
+        assertThat(values(firstNameIndex.complete("ta", 10))).containsExactly("Tanya");
+
+        session.beginTransaction();
+        session.delete(user);
+        session.getTransaction().commit();
+        assertThat(firstNameIndex.complete("ta", 10)).isEmpty();
+    }
+
+    private List<String> values(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::value).collect(toList());
+    }
+}
@@ -0,0 +1,203 @@
+package by.itacademy.hibernate.util;
+
+import by.itacademy.hibernate.dao.UserDao;
+import by.itacademy.hibernate.entity.User;
+import by.itacademy.hibernate.utils.EmbeddedDatabase;
+import lombok.Cleanup;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
+
+@TestInstance(PER_CLASS)
+class RoutingConnectionProviderTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_1_URL = "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_2_URL = "jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1";
+    private static final String UNREACHABLE_URL = "jdbc:h2:tcp://localhost:1/mem:unreachable";
+    private static final String RECOVERING_URL = "jdbc:h2:mem:recovering;DB_CLOSE_DELAY=-1";
+
+    private final UserDao userDao = UserDao.getInstance();
+
+    @BeforeAll
+    public void initDb() {
+        saveUser(PRIMARY_URL, "primary");
+        saveUser(REPLICA_1_URL, "replica1");
+        saveUser(REPLICA_2_URL, "replica2");
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        @Cleanup SessionFactory sessionFactory = buildRoutingSessionFactory(REPLICA_1_URL);
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+        User user = User.builder()
+                .username("written")
+                .build();
+        session.save(user);
+        session.getTransaction().commit();
+
+        assertThat(findUsernames(PRIMARY_URL)).containsExactlyInAnyOrder("primary", "written");
+        assertThat(findUsernames(REPLICA_1_URL)).containsExactly("replica1");
+
+        session.beginTransaction();
+        session.delete(user);
+        session.getTransaction().commit();
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        @Cleanup SessionFactory sessionFactory = buildRoutingSessionFactory(UNREACHABLE_URL);
+
+        List<String> usernames = DataSourceRouting.readOnly(() -> findUsernames(sessionFactory));
+
+        assertThat(usernames).containsExactly("primary");
+        assertThat(routingProvider(sessionFactory).getAvailableReplicaUrls()).isEmpty();
+    }
+
+    @Test
+    void replicaLeavesAndReturnsToRotation() throws Exception {
+        Properties properties = routingProperties(RECOVERING_URL + ";IFEXISTS=TRUE");
+        properties.setProperty(RoutingConnectionProvider.REPLICA_LAG_CHECK_INTERVAL, "50");
+        @Cleanup SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(properties);
+        RoutingConnectionProvider provider = routingProvider(sessionFactory);
+
+        assertThat(DataSourceRouting.readOnly(() -> findUsernames(sessionFactory))).containsExactly("primary");
+        assertThat(provider.getAvailableReplicaUrls()).isEmpty();
+
+        saveUser(RECOVERING_URL, "recovering");
+        awaitAvailableReplicas(provider, 1);
+        assertThat(DataSourceRouting.readOnly(() -> findUsernames(sessionFactory))).containsExactly("recovering");
+
+        try (Connection connection = DriverManager.getConnection(RECOVERING_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        awaitAvailableReplicas(provider, 0);
+        assertThat(DataSourceRouting.readOnly(() -> findUsernames(sessionFactory))).containsExactly("primary");
+    }
+
+    @Test
+    void readOnlyWorkGoesToReplicasInRoundRobin() {
+        @Cleanup SessionFactory sessionFactory = buildRoutingSessionFactory(REPLICA_1_URL + "," + REPLICA_2_URL);
+
+        List<String> first = DataSourceRouting.readOnly(() -> findUsernames(sessionFactory));
+        List<String> second = DataSourceRouting.readOnly(() -> findUsernames(sessionFactory));
+        List<String> third = DataSourceRouting.readOnly(() -> findUsernames(sessionFactory));
+
+        assertThat(first).containsExactly("replica1");
+        assertThat(second).containsExactly("replica2");
+        assertThat(third).containsExactly("replica1");
+    }
+
+    @Test
+    void leastLoadedReplicaIsChosen() {
+        Properties properties = routingProperties(REPLICA_1_URL + "," + REPLICA_2_URL);
+        properties.setProperty(RoutingConnectionProvider.REPLICA_STRATEGY, "least_loaded");
+        @Cleanup SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(properties);
+
+        @Cleanup Session busySession = DataSourceRouting.readOnly(() -> {
+            Session session = sessionFactory.openSession();
+            session.beginTransaction();
+            return session;
+        });
+        assertThat(userDao.findAll(busySession).get(0).getUsername()).isEqualTo("replica1");
+
+        List<String> usernames = DataSourceRouting.readOnly(() -> findUsernames(sessionFactory));
+        assertThat(usernames).containsExactly("replica2");
+
+        busySession.getTransaction().commit();
+    }
+
+    @Test
+    void strategyIsParsedIndependentlyOfDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Properties properties = routingProperties(REPLICA_1_URL);
+            properties.setProperty(RoutingConnectionProvider.REPLICA_STRATEGY, "round_robin");
+            @Cleanup SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(properties);
+
+            assertThat(DataSourceRouting.readOnly(() -> findUsernames(sessionFactory))).containsExactly("replica1");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        Properties properties = routingProperties(REPLICA_1_URL);
+        properties.setProperty(RoutingConnectionProvider.REPLICA_MAX_LAG, "5");
+        properties.setProperty(RoutingConnectionProvider.REPLICA_LAG_QUERY, "SELECT 60");
+        @Cleanup SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(properties);
+
+        List<String> usernames = DataSourceRouting.readOnly(() -> findUsernames(sessionFactory));
+        assertThat(usernames).containsExactly("primary");
+    }
+
+    private List<String> findUsernames(SessionFactory sessionFactory) {
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        List<String> usernames = userDao.findAll(session).stream().map(User::getUsername).collect(toList());
+
+        session.getTransaction().commit();
+        return usernames;
+    }
+
+    private List<String> findUsernames(String url) {
+        @Cleanup SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(EmbeddedDatabase.properties(url, "none"));
+        return findUsernames(sessionFactory);
+    }
+
+    private RoutingConnectionProvider routingProvider(SessionFactory sessionFactory) {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class)
+                .unwrap(RoutingConnectionProvider.class);
+    }
+
+    private void awaitAvailableReplicas(RoutingConnectionProvider provider, int count) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && provider.getAvailableReplicaUrls().size() != count; attempt++) {
+            Thread.sleep(50);
+        }
+        assertThat(provider.getAvailableReplicaUrls()).hasSize(count);
+    }
+
+    private SessionFactory buildRoutingSessionFactory(String replicaUrls) {
+        return HibernateUtil.buildSessionFactory(routingProperties(replicaUrls));
+    }
+
+    private Properties routingProperties(String replicaUrls) {
+        Properties properties = EmbeddedDatabase.properties(PRIMARY_URL, "none");
+        properties.setProperty(RoutingConnectionProvider.REPLICA_URLS, replicaUrls);
+        return properties;
+    }
+
+    private void saveUser(String url, String username) {
+        @Cleanup SessionFactory sessionFactory = HibernateUtil.buildSessionFactory(EmbeddedDatabase.properties(url, "create"));
+        @Cleanup Session session = sessionFactory.openSession();
+        session.beginTransaction();
+
+        session.save(User.builder()
+                .username(username)
+                .build());
+
+        session.getTransaction().commit();
+    }
+}
@@ -0,0 +1,24 @@
+package by.itacademy.hibernate.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Properties;
+
+@UtilityClass
+public class EmbeddedDatabase {
+
+    /**
+     * Свойства, переопределяющие в hibernate.cfg.xml PostgreSQL на in-memory H2 с указанным URL
+     */
+    public Properties properties(String url, String hbm2ddl) {
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.connection.url", url);
+        properties.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        properties.setProperty("hibernate.connection.username", "sa");
+        properties.setProperty("hibernate.connection.password", "");
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.hbm2ddl.auto", hbm2ddl);
+        properties.setProperty("hibernate.show_sql", "false");
+        return properties;
+    }
+}